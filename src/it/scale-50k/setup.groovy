@@ -0,0 +1 @@
+evaluate( new File( basedir, "../setup-fake-detector/scale/setup.groovy" ) )
@@ -0,0 +1,14 @@
+// Shared by the scale-* ITs, evaluated from their own setup.groovy with their basedir
+
+def budget = new Properties()
+new File( basedir, "budget.properties" ).withInputStream { budget.load( it ) }
+
+File jar = new File( basedir, "../setup-fake-detector/target/fake-detector.jar" )
+assert jar.isFile()
+
+def generate = [ "java", "-cp", jar.absolutePath, "es.upm.alumnos.profundizacion.it.GenerateProject", basedir.absolutePath, budget.classes ].execute()
+generate.waitForProcessOutput( System.out, System.err )
+assert generate.exitValue() == 0
+
+new File( basedir, "start-millis.txt" ).text = System.currentTimeMillis()
+return true
@@ -0,0 +1,18 @@
+// Shared by the scale-* ITs, evaluated from their own verify.groovy with their basedir
+
+def budget = new Properties()
+new File( basedir, "budget.properties" ).withInputStream { budget.load( it ) }
+
+long elapsed = System.currentTimeMillis() - Long.parseLong( new File( basedir, "start-millis.txt" ).text.trim() )
+println "tsdetect over ${budget.classes} classes took ${elapsed} ms, budget ${budget.seconds} s"
+assert elapsed <= Long.parseLong( budget.seconds ) * 1000
+
+File reportDir = new File( basedir, "target/site" )
+File[] reports = reportDir.listFiles().findAll { it.name ==~ /Output_TestSmellDetection_\d+\.csv/ }
+assert reports.size() == 1
+assert reports[0].readLines().size() == Integer.parseInt( budget.classes ) + 1
+assert reportDir.listFiles().any { it.name ==~ /Detail_TestSmellDetection_\d+\.txt/ }
+
+File log = new File( basedir, "build.log" )
+assert !log.text.contains( "OutOfMemoryError" )
+return true
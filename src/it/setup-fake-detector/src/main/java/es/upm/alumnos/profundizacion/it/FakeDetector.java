@@ -0,0 +1,51 @@
+package es.upm.alumnos.profundizacion.it;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Stand-in for the TestSmellDetector JAR.
+ * Reads the same input CSV and writes an Output_TestSmellDetection_*.csv with the same columns
+ * on the working directory, the counts only depend on the test file.
+ */
+public class FakeDetector
+{
+	private static final String[] SMELLS = {
+		"Assertion Roulette", "Conditional Test Logic", "Constructor Initialization", "Default Test",
+		"EmptyTest", "Exception Catching Throwing", "General Fixture", "Mystery Guest", "Print Statement",
+		"Redundant Assertion", "Sensitive Equality", "Verbose Test", "Sleepy Test", "Eager Test", "Lazy Test",
+		"Duplicate Assert", "Unknown Test", "IgnoredTest", "Resource Optimism", "Magic Number Test", "Dependent Test"
+	};
+
+	public static void main ( String[] args ) throws IOException
+	{
+		final File output = new File("Output_TestSmellDetection_" + System.currentTimeMillis() + ".csv");
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]));
+		     BufferedWriter writer = Files.newBufferedWriter(output.toPath())) {
+			writer.write("App,TestClass,TestFilePath,ProductionFilePath,RelativeTestFilePath,RelativeProductionFilePath,NumberOfMethods");
+			for (String smell: SMELLS)
+				writer.write("," + smell);
+			writer.newLine();
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				final String[] columns = line.split(",");
+				final File testFile = new File(columns[1]);
+				final String content = new String(Files.readAllBytes(testFile.toPath()), "UTF-8");
+				final int methods = Math.max(1, content.split("@Test", -1).length - 1);
+				final String testClass = testFile.getName().replace(".java", "");
+				writer.write(String.join(",", columns[0], testClass, columns[1], columns[2], "", "", String.valueOf(methods)));
+				final int hash = columns[1].hashCode() & Integer.MAX_VALUE;
+				for (int i = 0; i < SMELLS.length; i++)
+				{
+					final int seed = (hash >>> (i % 16)) + i * 31;
+					writer.write("," + (seed % 5 == 0 ? 1 + seed % methods : 0));
+				}
+				writer.newLine();
+			}
+		}
+	}
+}
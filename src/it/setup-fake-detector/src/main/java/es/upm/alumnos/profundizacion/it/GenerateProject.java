@@ -0,0 +1,56 @@
+package es.upm.alumnos.profundizacion.it;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Generates a synthetic project with the given number of production classes, each one with its test class.
+ * Usage: GenerateProject basedir classes
+ */
+public class GenerateProject
+{
+	private static final int CLASSES_PER_PACKAGE = 100;
+
+	public static void main ( String[] args ) throws IOException
+	{
+		final File basedir = new File(args[0]);
+		final int classes = Integer.parseInt(args[1]);
+		for (int i = 0; i < classes; i++)
+		{
+			final String pkg = String.format("gen.p%04d", i / CLASSES_PER_PACKAGE);
+			final String name = String.format("Class%06d", i);
+			final int methods = 1 + i % 10;
+			write(new File(basedir, "src/main/java/" + pkg.replace('.', '/') + "/" + name + ".java"), production(pkg, name, methods));
+			write(new File(basedir, "src/test/java/" + pkg.replace('.', '/') + "/" + name + "Test.java"), test(pkg, name, methods));
+		}
+	}
+
+	private static String production ( String pkg, String name, int methods )
+	{
+		final StringBuilder result = new StringBuilder("package ").append(pkg).append(";\n\npublic class ").append(name).append("\n{\n");
+		for (int m = 0; m < methods; m++)
+		{
+			result.append("\tpublic int method").append(m).append(" ( int value )\n\t{\n\t\treturn value + ").append(m).append(";\n\t}\n");
+		}
+		return result.append("}\n").toString();
+	}
+
+	private static String test ( String pkg, String name, int methods )
+	{
+		final StringBuilder result = new StringBuilder("package ").append(pkg).append(";\n\n")
+			.append("import static org.junit.Assert.*;\nimport org.junit.Test;\n\npublic class ").append(name).append("Test\n{\n");
+		for (int m = 0; m < methods; m++)
+		{
+			result.append("\t@Test\n\tpublic void testMethod").append(m).append("()\n\t{\n")
+				.append("\t\tassertEquals(").append(m + 1).append(", new ").append(name).append("().method").append(m).append("(1));\n\t}\n");
+		}
+		return result.append("}\n").toString();
+	}
+
+	private static void write ( File file, String content ) throws IOException
+	{
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes("UTF-8"));
+	}
+}
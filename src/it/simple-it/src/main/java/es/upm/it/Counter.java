@@ -0,0 +1,11 @@
+package es.upm.it;
+
+public class Counter
+{
+	private int count = 0;
+
+	public int increment ( )
+	{
+		return ++count;
+	}
+}
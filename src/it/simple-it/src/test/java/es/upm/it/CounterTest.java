@@ -0,0 +1,13 @@
+package es.upm.it;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CounterTest
+{
+	@Test
+	public void testIncrement()
+	{
+		assertEquals(1, new Counter().increment());
+	}
+}
@@ -1,3 +1,4 @@
-File touchFile = new File( basedir, "target/touch.txt" );
+File reportDir = new File( basedir, "target/site" )
 
-assert touchFile.isFile()
+assert reportDir.listFiles().any { it.name ==~ /Output_TestSmellDetection_\d+\.csv/ }
+assert reportDir.listFiles().any { it.name ==~ /Detail_TestSmellDetection_\d+\.txt/ }
@@ -0,0 +1,166 @@
+package es.upm.alumnos.profundizacion;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs the detector over batches of files, up to {@code forks} at the same time, and adds their
+ * reports as they complete. With fail-fast the pending batches are cancelled as soon as the running
+ * total passes the threshold, the counts only grow so the result can't go back under it.
+ */
+public class BatchDetection<T>
+{
+	public interface Detector<T>
+	{
+		/**
+		 * Report of one batch, it must throw instead of returning an incomplete report.
+		 */
+		SmellTable detect ( int batch, List<T> files ) throws MojoExecutionException, InterruptedException;
+	}
+
+	public interface Progress
+	{
+		void batchDone ( int batch, int completed, long runningTotal );
+	}
+
+	/** A file with its ordering keys, worked out once instead of on each comparison. */
+	private static class Scheduled<T>
+	{
+		private final T file;
+		private final long priorCount;
+		private final long cost;
+
+		private Scheduled ( T file, long priorCount, long cost )
+		{
+			this.file = file;
+			this.priorCount = priorCount;
+			this.cost = cost;
+		}
+	}
+
+	private final int forks;
+	private final boolean failFast;
+	private final long threshold;
+	private boolean partial = false;
+	private int completed = 0;
+
+	public BatchDetection ( int forks, boolean failFast, long threshold )
+	{
+		this.forks = Math.max(1, forks);
+		this.failFast = failFast;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Splits the files in batches, biggest offenders of the previous run first and then the
+	 * biggest files, so a failing build reaches the threshold as soon as possible.
+	 * There is always at least one batch, a {@code batchSize} of 0 or less puts every file on it.
+	 * {@code priorCount} and {@code cost} are called once per file.
+	 */
+	public static <T> List<List<T>> schedule ( Collection<T> files, ToLongFunction<T> priorCount, ToLongFunction<T> cost, int batchSize )
+	{
+		final List<Scheduled<T>> ordered = new ArrayList<>(files.size());
+		for (T file: files)
+		{
+			ordered.add(new Scheduled<>(file, priorCount.applyAsLong(file), cost.applyAsLong(file)));
+		}
+		ordered.sort(Comparator.<Scheduled<T>>comparingLong(file -> file.priorCount).thenComparingLong(file -> file.cost).reversed());
+		final int size = batchSize > 0 ? batchSize : Math.max(1, ordered.size());
+		final List<List<T>> result = new ArrayList<>();
+		for (int from = 0; from < ordered.size(); from += size)
+		{
+			final List<T> batch = new ArrayList<>();
+			ordered.subList(from, Math.min(from + size, ordered.size())).forEach(file -> batch.add(file.file));
+			result.add(batch);
+		}
+		if (result.isEmpty())
+			result.add(new ArrayList<>());
+		return result;
+	}
+
+	/**
+	 * Report of the batches merged in batch order, whatever order they completed in.
+	 */
+	public SmellTable run ( List<List<T>> batches, Detector<T> detector, Progress progress ) throws MojoExecutionException
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(forks, Math.max(1, batches.size())));
+		final CompletionService<SmellTable> completion = new ExecutorCompletionService<>(executor);
+		final Map<Future<SmellTable>, Integer> indexes = new HashMap<>();
+		final SmellTable[] reports = new SmellTable[batches.size()];
+		long runningTotal = 0;
+		try {
+			for (int i = 0; i < batches.size(); i++)
+			{
+				final int batch = i;
+				indexes.put(completion.submit(() -> detector.detect(batch, batches.get(batch))), batch);
+			}
+			while (completed < batches.size())
+			{
+				final Future<SmellTable> future = completion.take();
+				final int batch = indexes.get(future);
+				reports[batch] = future.get();
+				completed++;
+				runningTotal = SmellTable.addCounts(runningTotal, reports[batch].total());
+				progress.batchDone(batch, completed, runningTotal);
+				if (failFast && runningTotal > threshold && completed < batches.size())
+				{
+					partial = true;
+					break;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MojoExecutionException("Interrupted while waiting for the detector", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof MojoExecutionException)
+				throw (MojoExecutionException) e.getCause();
+			throw new MojoExecutionException("The detector failed: " + e.getCause(), e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+			try {
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		final SmellTable result = new SmellTable();
+		for (SmellTable report: reports)
+		{
+			if (report != null)
+				result.add(report);
+		}
+		return result;
+	}
+
+	/**
+	 * Whether some batches were cancelled because the threshold was exceeded.
+	 */
+	public boolean partial ( )
+	{
+		return partial;
+	}
+
+	public int completed ( )
+	{
+		return completed;
+	}
+}
@@ -10,10 +10,10 @@ import org.apache.maven.plugins.annotations.Parameter;
 
 import com.opencsv.CSVWriter;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -21,8 +21,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -37,6 +42,19 @@ public class MyMojo extends AbstractMojo
 	private static final Object VERBOSE = new Object();
 	private static final String JAVA_EXT = ".java";
 	private static final Predicate<String> isJavaFile = file -> file.endsWith(JAVA_EXT);
+	private static final String REPORT_PREFIX = "Output_TestSmellDetection_";
+	private static final String REPORT_EXT = ".csv";
+	private static final String ESTIMATE_PREFIX = "Estimate_TestSmellDetection_";
+	private static final String DETAIL_PREFIX = "Detail_TestSmellDetection_";
+	private static final String DETAIL_EXT = ".txt";
+	private static final String LOG_DETAIL = "detail";
+	private static final String LOG_SUMMARY = "summary";
+	private static final String DEFAULT_PACKAGE = "(default)";
+	private static final String PARTIAL_REPORT_EXT = ".partial.csv";
+	private static final String SAMPLE_REPORT_EXT = ".sample.csv";
+	private static final String BATCH_DIR = "tsdetect-batches";
+	private static final String BATCH_INPUT = "input.csv";
+	private static final String BATCH_OUTPUT = "detector.log";
 	
 	public static class SuperObject
 	{
@@ -120,6 +138,30 @@ public class MyMojo extends AbstractMojo
     @Parameter(property = "tsdetect.threshold")
     private long threshold = 0;
     
+    @Parameter(defaultValue = "1000", property = "tsdetect.batchSize")
+    private int batchSize = 1000;
+    
+    @Parameter(defaultValue = "1", property = "tsdetect.forks")
+    private int forks = 1;
+    
+    @Parameter(defaultValue = "true", property = "tsdetect.failFast")
+    private boolean failFast = true;
+    
+    @Parameter(defaultValue = "1", property = "tsdetect.sampleRate")
+    private double sampleRate = 1;
+    
+    @Parameter(defaultValue = "0", property = "tsdetect.sampleSeed")
+    private long sampleSeed = 0;
+    
+    @Parameter(defaultValue = "summary", property = "tsdetect.logMode")
+    private String logMode = "summary";
+    
+    @Parameter(defaultValue = "10", property = "tsdetect.topFiles")
+    private int topFiles = 10;
+    
+    @Parameter(defaultValue = "200", property = "tsdetect.maxLogLines")
+    private int maxLogLines = 200;
+    
     @Parameter(defaultValue = "java", property = "tsdetect.java")
     private String java;
     
@@ -138,6 +180,14 @@ public class MyMojo extends AbstractMojo
     	info("Other variables:", VERBOSE);
     	printAttribute("verbose", "- %s: %s");
     	printAttribute("threshold", "- %s: %s");
+    	printAttribute("batchSize", "- %s: %s");
+    	printAttribute("forks", "- %s: %s");
+    	printAttribute("failFast", "- %s: %s");
+    	printAttribute("sampleRate", "- %s: %s");
+    	printAttribute("sampleSeed", "- %s: %s");
+    	printAttribute("logMode", "- %s: %s");
+    	printAttribute("topFiles", "- %s: %s");
+    	printAttribute("maxLogLines", "- %s: %s");
     	printAttribute("jar", "- %s: %s");
     	printAttribute("java", "- %s: %s");
     	if (jar == null)
@@ -160,30 +210,62 @@ public class MyMojo extends AbstractMojo
     	final List<InfoFile> testFiles = getTestFiles();
     	testFiles.forEach( file -> info("- %s", file, VERBOSE) );
     	info("Matching prod-test files:", VERBOSE);
-    	final Map<InfoFile, InfoFile> matchedFiles = matchProductionToTestFile(prodFiles, testFiles);
+    	Map<InfoFile, InfoFile> matchedFiles = matchProductionToTestFile(prodFiles, testFiles);
     	matchedFiles.entrySet().forEach( entry -> info("- %s > %s", entry.getKey().name(), entry.getValue().name(), VERBOSE) );
-    	File inputCSV = null;
-    	try {
-			inputCSV = File.createTempFile("inputCSV", null);
-			inputCSV.deleteOnExit();
-			writeInputCSV(inputCSV, matchedFiles);
-		}
-    	catch (IOException e) {
-    		throw reportException(e, "Can't create the input file to run the JAR.\nDirectory: %s", pwd());
-		}
-    	try {
-    		Process jarRunning = runJAR(inputCSV);
-    		jarRunning.waitFor();
-    		printOutputFor(jarRunning);
-		}
-    	catch (InterruptedException e) {
-    		throw reportException(e, "There was an error running the JAR.");
-		}
-    	final File lastOutputReport = getLastOutputReport();
-        
-        if (lastOutputReport == null) throw new MojoExecutionException("No output test smells files were found");
+    	if (sampleRate <= 0 || sampleRate > 1)
+    	{
+    		throw reportException(null, "Property 'tsdetect.sampleRate' must be in (0, 1], found %s.", sampleRate);
+    	}
+    	if (!LOG_DETAIL.equalsIgnoreCase(logMode) && !LOG_SUMMARY.equalsIgnoreCase(logMode))
+    	{
+    		throw reportException(null, "Property 'tsdetect.logMode' must be '%s' or '%s', found '%s'.", LOG_SUMMARY, LOG_DETAIL, logMode);
+    	}
+    	if (forks < 1)
+    	{
+    		throw reportException(null, "Property 'tsdetect.forks' must be at least 1, found %d.", forks);
+    	}
+    	final boolean sampling = sampleRate < 1;
+    	StratifiedSample<Map.Entry<InfoFile, InfoFile>> sample = null;
+    	if (sampling)
+    	{
+    		sample = sampleMatchedFiles(matchedFiles);
+    		info("Sampled %d of %d matched files (%.2f%%, requested %.2f%%) on %d strata (seed %d)", sample.selected().size(), sample.populationSize(),
+    			100.0 * sample.selected().size() / Math.max(1, sample.populationSize()), 100 * sampleRate, sample.strataCount(), sampleSeed);
+    		matchedFiles = new LinkedHashMap<>();
+    		for (Map.Entry<InfoFile, InfoFile> entry: sample.selected())
+    			matchedFiles.put(entry.getKey(), entry.getValue());
+    	}
+    	final File previousReport = getPreviousOutputReport();
+    	final SmellTable previous = readPreviousOutputReport(previousReport);
+    	final File previousCompleteReport = getLastOutputReport(projReportDir, REPORT_EXT);
+    	final List<List<Map.Entry<InfoFile, InfoFile>>> batches = scheduleBatches(matchedFiles, previous);
+    	info("Scheduled %d batch(es) of up to %d matched files, %d at a time", batches.size(), batchSize, forks, VERBOSE);
+    	final File batchesDir = new File(projReportDir, BATCH_DIR);
+    	if (!deleteRecursively(batchesDir))
+    		warn("Couldn't delete the batches of a previous run: %s", batchesDir.getAbsolutePath());
+    	final File batchDir = new File(batchesDir, Long.toString(System.currentTimeMillis()));
+    	final BatchDetection<Map.Entry<InfoFile, InfoFile>> detection = new BatchDetection<>(forks, failFast && !sampling, threshold);
+    	final SmellTable report = detection.run(batches,
+    		(index, batch) -> runBatch(new File(batchDir, String.format("batch-%04d", index + 1)), index + 1, batch),
+    		(index, completed, runningTotal) -> info("Batch %d done (%d/%d), running total of test smells: %d", index + 1, completed, batches.size(), runningTotal, VERBOSE));
+    	final boolean partial = detection.partial();
+    	if (partial)
+    		warn("Threshold exceeded after %d/%d batch(es), the remaining ones were cancelled", detection.completed(), batches.size());
+    	if (!deleteRecursively(batchesDir))
+    		warn("Couldn't delete the batches directory: %s", batchesDir.getAbsolutePath());
+    	final File lastOutputReport = writeOutputReport(report, partial, sampling);
+    	info("Report written: %s", lastOutputReport.getAbsolutePath(), VERBOSE);
+    	if (sampling)
+    	{
+    		reportEstimates(sample, report);
+    		info("Detail of the sampled test files: %s", writeDetailReport(report, lastOutputReport, null).getAbsolutePath(), VERBOSE);
+    		warn("Threshold is not checked on sampled runs");
+    		return;
+    	}
 
-    	long totalTSDetected = reportCSVGenerated(lastOutputReport);
+    	if (!partial && previousCompleteReport != null)
+    		reportDifferences(previousCompleteReport.equals(previousReport) ? previous : readOutputReport(previousCompleteReport), report);
+    	long totalTSDetected = reportCSVGenerated(report, lastOutputReport);
     	if (totalTSDetected != 0)
     	{
     		if (totalTSDetected > threshold)
@@ -191,6 +273,8 @@ public class MyMojo extends AbstractMojo
     			error("Test Smells threshold exceeded!");
     			error("Threshold: %d", threshold);
     			error("Total Test Smells: %d", totalTSDetected);
+    			if (partial)
+    				error("Detection stopped early, report is partial: %s", lastOutputReport.getName());
     			error("Aborting execution");
     			throw new MojoExecutionException("Test Smells threshold exceeded!");
     		}
@@ -198,66 +282,259 @@ public class MyMojo extends AbstractMojo
     	}
     }
     
-    private File getLastOutputReport() throws MojoExecutionException {
-        final String PREFIX = "Output_TestSmellDetection_";
-        final String EXTENSION = ".csv";
+    private File getLastOutputReport ( File dir, String extension ) throws MojoExecutionException
+    {
         try {
-            return Stream.of(projReportDir.listFiles())
-                .filter(file -> !file.isDirectory())
-                .filter(file -> file.getName().startsWith(PREFIX) && file.getName().endsWith(EXTENSION))
-                .filter(file -> {
-                    String timestamp = file.getName().substring(PREFIX.length(), file.getName().length() - EXTENSION.length());
-                    return timestamp.matches("\\d+");
-                })
-                .max(Comparator.comparingLong(file ->
-                    Long.parseLong(file.getName().substring(PREFIX.length(), file.getName().length() - EXTENSION.length()))
-                ))
-                .orElse(null);
+            return lastOutputReport(dir, extension);
         } catch (NumberFormatException e) {
             throw reportException(e, "Couldn't parse a filename's milisecond timestamp as long");
         }
     }
     
-    private long reportCSVGenerated ( File lastOutputReport ) throws MojoExecutionException
+    /**
+     * Newest report of a directory with the given extension, the timestamp must be only digits
+     * so {@code .csv} doesn't pick {@code .partial.csv} reports.
+     */
+    static File lastOutputReport ( File dir, String extension )
+    {
+        final File[] files = dir.listFiles();
+        if (files == null)
+            return null;
+        return Stream.of(files)
+            .filter(file -> !file.isDirectory())
+            .filter(file -> file.getName().startsWith(REPORT_PREFIX) && file.getName().endsWith(extension))
+            .filter(file -> reportTimestamp(file, extension).matches("\\d+"))
+            .max(Comparator.comparingLong(file -> Long.parseLong(reportTimestamp(file, extension))))
+            .orElse(null);
+    }
+    
+    static String outputReportName ( long timestamp, boolean partial, boolean sample )
+    {
+        return REPORT_PREFIX + timestamp + (sample ? SAMPLE_REPORT_EXT : partial ? PARTIAL_REPORT_EXT : REPORT_EXT);
+    }
+    
+    private static String reportTimestamp ( File report, String extension )
+    {
+        final String name = report.getName();
+        return name.substring(REPORT_PREFIX.length(), name.length() - extension.length());
+    }
+    
+    /**
+     * Latest report of a previous run, complete or partial, used to prioritize the batches.
+     * Sampled reports only cover a few files, so they aren't taken into account.
+     */
+    private File getPreviousOutputReport ( ) throws MojoExecutionException
+    {
+        final File complete = getLastOutputReport(projReportDir, REPORT_EXT);
+        final File partial = getLastOutputReport(projReportDir, PARTIAL_REPORT_EXT);
+        if (complete == null || partial == null)
+            return complete == null ? partial : complete;
+        return Long.parseLong(reportTimestamp(partial, PARTIAL_REPORT_EXT)) > Long.parseLong(reportTimestamp(complete, REPORT_EXT)) ? partial : complete;
+    }
+    
+    private SmellTable readPreviousOutputReport ( File previous ) throws MojoExecutionException
+    {
+        if (previous == null)
+            return new SmellTable();
+        info("Using previous report to order batches: %s", previous.getName(), VERBOSE);
+        return readOutputReport(previous);
+    }
+    
+    /**
+     * Compares the report with the latest complete report of a previous run, partial and sampled
+     * reports only cover part of the files.
+     */
+    private void reportDifferences ( SmellTable previous, SmellTable report )
+    {
+        long worse = 0;
+        long better = 0;
+        for (int row = 0; row < report.rows(); row++)
+        {
+            final long delta = report.rowTotal(row) - report.rowTotalOn(previous, row);
+            if (delta > 0)
+                worse++;
+            else if (delta < 0)
+                better++;
+        }
+        info("Compared with the previous report: %+d test smells, %d test file(s) worse, %d better",
+            report.total() - previous.total(), worse, better);
+    }
+    
+    /**
+     * Stratifies the matched files by package and by size of the test file (powers of two in KiB).
+     */
+    private StratifiedSample<Map.Entry<InfoFile, InfoFile>> sampleMatchedFiles ( final Map<InfoFile, InfoFile> matchedFiles )
+    {
+    	return new StratifiedSample<>(
+    		matchedFiles.entrySet(),
+    		entry -> {
+    			final String fullname = entry.getKey().fullname();
+    			final String pkg = fullname.substring(0, Math.max(0, fullname.lastIndexOf('.')));
+    			final long kib = new File(entry.getValue().filepath()).length() / 1024;
+    			return pkg + "#" + (Long.SIZE - Long.numberOfLeadingZeros(kib));
+    		},
+    		Comparator.comparing(entry -> entry.getValue().filepath()),
+    		sampleRate,
+    		sampleSeed);
+    }
+    
+    private void reportEstimates ( StratifiedSample<Map.Entry<InfoFile, InfoFile>> sample, SmellTable report ) throws MojoExecutionException
+    {
+    	final StratifiedSample.Estimate[] estimates = sample.estimate(entry -> {
+    		final int row = report.rowOf(entry.getValue().filepath());
+    		if (row < 0)
+    			return null;
+    		final long[] counts = new long[report.smells()];
+    		for (int smell = 0; smell < counts.length; smell++)
+    			counts[smell] = report.count(row, smell);
+    		return counts;
+    	}, report.smells());
+    	
+    	final List<String> lines = new ArrayList<>();
+    	lines.add("TestSmell,Estimate,Lower95,Upper95");
+    	info("Estimated test smells (95%% confidence interval):");
+    	for (int i = 0; i < estimates.length; i++)
+    	{
+    		final StratifiedSample.Estimate estimate = estimates[i];
+    		info(" - %s: %.0f [%.0f, %.0f]", report.smell(i), estimate.value(), estimate.lower(), estimate.upper());
+    		lines.add(String.format(Locale.ROOT, "%s,%.2f,%.2f,%.2f", report.smell(i), estimate.value(), estimate.lower(), estimate.upper()));
+    	}
+    	final File estimateReport = new File(projReportDir, ESTIMATE_PREFIX + System.currentTimeMillis() + REPORT_EXT);
+    	try {
+    		Files.write(estimateReport.toPath(), lines);
+    	} catch (IOException e) {
+    		throw reportException(e, "Couldn't write the estimate report file %s", estimateReport.getAbsolutePath());
+    	}
+    	info("Estimate report written: %s", estimateReport.getAbsolutePath(), VERBOSE);
+    }
+    
+    /**
+     * Splits the matched files in batches, biggest offenders of the previous run first and then
+     * the biggest files, so a failing build reaches the threshold as soon as possible.
+     */
+    private List<List<Map.Entry<InfoFile, InfoFile>>> scheduleBatches ( final Map<InfoFile, InfoFile> matchedFiles, final SmellTable previous )
     {
-    	long result = 0;
+        return BatchDetection.schedule(
+            matchedFiles.entrySet(),
+            entry -> {
+                final int row = previous.rowOf(entry.getValue().filepath());
+                return row < 0 ? 0 : previous.rowTotal(row);
+            },
+            entry -> new File(entry.getKey().filepath()).length() + new File(entry.getValue().filepath()).length(),
+            batchSize);
+    }
+    
+    /**
+     * Runs the JAR over a batch on its own directory, so the report found there can only be from this batch.
+     */
+    private SmellTable runBatch ( final File dir, final int index, final List<Map.Entry<InfoFile, InfoFile>> batch ) throws MojoExecutionException, InterruptedException
+    {
+    	if (!dir.mkdirs())
+    		throw reportException(null, "Can't create the directory of batch %d: %s", index, dir.getAbsolutePath());
+    	final File inputCSV = new File(dir, BATCH_INPUT);
+    	final Map<InfoFile, InfoFile> files = new LinkedHashMap<>();
+    	batch.forEach(entry -> files.put(entry.getKey(), entry.getValue()));
+    	writeInputCSV(inputCSV, files);
+    	final File output = new File(dir, BATCH_OUTPUT);
+    	final Process jarRunning = runJAR(inputCSV, dir, output);
     	try {
-            final int NON_TEST_SMELL_COLUMNS = 7;
-
-            List<String> smells = Files.lines(lastOutputReport.toPath())
-                           .findFirst()
-                           .map(line -> Arrays.stream(line.split(","))
-                                              .skip(NON_TEST_SMELL_COLUMNS) 
-                                              .collect(Collectors.toList()))
-                           .orElse(Collections.emptyList());
-
-            boolean printedBefore = false;
-            for(String line: Files.lines(lastOutputReport.toPath()).skip(1).collect(Collectors.toList()))
-            {
-				final String[] splitLine = line.split(",");
-				final String app = splitLine[0];
-				final String testFile = splitLine[2];
-				for (int i = NON_TEST_SMELL_COLUMNS; i < splitLine.length; i++) {
-					String str = splitLine[i];
-					if (str.matches("\\d+") && Long.parseLong(str) > 0) {
-						long count = Long.parseLong(str);
-						result += count;
-						if (!printedBefore)
-						{
-							warn("Detected test smells:");
-							warn(" -       App: %s", app);
-							warn(" - Test File: %s", testFile);
-						}
-						warn("  + %s count: %d", smells.get(i - NON_TEST_SMELL_COLUMNS), count);                            
-						printedBefore = true;
-					}
-				}
-				printedBefore = false;
-            }
+    		jarRunning.waitFor();
+    	}
+    	catch (InterruptedException e) {
+    		jarRunning.destroyForcibly();
+    		throw e;
+    	}
+    	printOutputFor(output);
+    	if (jarRunning.exitValue() != 0)
+    		throw reportException(null, "Batch %d: the JAR exited with code %d, see %s", index, jarRunning.exitValue(), output.getAbsolutePath());
+    	final File batchReport = getLastOutputReport(dir, REPORT_EXT);
+    	if (batchReport == null)
+    		throw reportException(null, "Batch %d: the JAR didn't write any output report on %s", index, dir.getAbsolutePath());
+    	return readOutputReport(batchReport);
+    }
+    
+    private boolean deleteRecursively ( File file )
+    {
+    	final File[] children = file.listFiles();
+    	boolean result = true;
+    	if (children != null)
+    	{
+    		for (File child: children)
+    			result &= deleteRecursively(child);
+    	}
+    	file.delete();
+    	return result && !file.exists();
+    }
+    
+    private SmellTable readOutputReport ( File report ) throws MojoExecutionException
+    {
+        try {
+            return SmellTable.read(report);
         } catch (IOException e) {
             throw reportException(e, "Couldn't open specified output report file");
         }
-    	return result;
+    }
+    
+    private File writeOutputReport ( SmellTable table, boolean partial, boolean sample ) throws MojoExecutionException
+    {
+        final File report = new File(projReportDir, outputReportName(System.currentTimeMillis(), partial, sample));
+        try {
+            table.write(report);
+        } catch (IOException e) {
+            throw reportException(e, "Couldn't write the output report file %s", report.getAbsolutePath());
+        }
+        return report;
+    }
+    
+    /**
+     * Writes every test smell of the report next to it, and also passes each line to {@code console} if it isn't {@code null}.
+     */
+    private File writeDetailReport ( SmellTable report, File outputReport, Consumer<String> console ) throws MojoExecutionException
+    {
+    	final String reportName = outputReport.getName();
+    	final File detailReport = new File(projReportDir,
+    		DETAIL_PREFIX + reportName.substring(REPORT_PREFIX.length(), reportName.length() - REPORT_EXT.length()) + DETAIL_EXT);
+    	try (BufferedWriter writer = Files.newBufferedWriter(detailReport.toPath())) {
+    		SmellSummary.writeDetail(report, writer, console);
+        } catch (IOException e) {
+            throw reportException(e, "Couldn't write the detail of %s into %s", reportName, detailReport.getName());
+        }
+    	return detailReport;
+    }
+    
+    private long reportCSVGenerated ( SmellTable report, File lastOutputReport ) throws MojoExecutionException
+    {
+    	final boolean detail = LOG_DETAIL.equalsIgnoreCase(logMode);
+    	final SmellSummary.LimitedLines console = new SmellSummary.LimitedLines(line -> warn("%s", line), maxLogLines);
+    	final File detailReport = writeDetailReport(report, lastOutputReport, detail ? console : null);
+    	final SmellSummary summary = new SmellSummary(report, topFiles, this::testPackageOf);
+    	if (detail)
+    	{
+    		if (console.skipped() > 0)
+    			warn("... %d more line(s) on %s", console.skipped(), detailReport.getAbsolutePath());
+    		return summary.total();
+    	}
+    	if (summary.total() == 0)
+    		return 0;
+    	summary.print(console);
+    	if (console.skipped() > 0)
+    		warn("... %d more line(s)", console.skipped());
+    	warn("Detail of every test file: %s", detailReport.getAbsolutePath());
+    	return summary.total();
+    }
+    
+    private String testPackageOf ( String testFile )
+    {
+    	final String testDir = testCodeDir.getAbsolutePath();
+    	final File parent = new File(testFile).getParentFile();
+    	if (parent == null)
+    		return DEFAULT_PACKAGE;
+    	final String dir = parent.getAbsolutePath();
+    	if (!dir.startsWith(testDir))
+    		return parent.getName();
+    	final String relative = dir.substring(testDir.length());
+    	final String pkg = relative.replaceAll(Pattern.quote(File.separator), ".");
+    	return pkg.startsWith(".") ? pkg.substring(1) : pkg.isEmpty() ? DEFAULT_PACKAGE : pkg;
     }
     
     public void writeInputCSV ( final File inputCSV, final Map<InfoFile, InfoFile> matchedFiles ) throws MojoExecutionException
@@ -275,12 +552,13 @@ public class MyMojo extends AbstractMojo
         }
     }
     
-    private Process runJAR ( File inputCSV ) throws MojoExecutionException
+    private Process runJAR ( File inputCSV, File workDir, File output ) throws MojoExecutionException
     {
     	String[] cmdline = {"java", "-jar", jar.getAbsolutePath(), inputCSV.getAbsolutePath()};
     	ProcessBuilder runner = new ProcessBuilder(cmdline);
     	runner.redirectErrorStream(true);
-		runner.directory(projReportDir);
+    	runner.redirectOutput(output);
+		runner.directory(workDir);
 		try {
 			info("Starting command: %s", String.join(" ", cmdline), VERBOSE);
 			return runner.start();
@@ -300,29 +578,39 @@ public class MyMojo extends AbstractMojo
     	return getFullpathFiles(testCodeDir).stream().filter(isJavaFile).map(InfoFile::new).collect(Collectors.toList());
     }
     
-    private boolean checkProductionMatchTestFile ( InfoFile prodFile, InfoFile testFile )
+    private Map<InfoFile, InfoFile> matchProductionToTestFile ( final List<InfoFile> prodFiles, final List<InfoFile> testFiles )
     {
-    	return testFile.name().equals(prodFile.name()+"Test")
-    		   || testFile.name().equals(prodFile.name()+"TestSuite")
-    		   || testFile.name().equals("Test"+prodFile.name());
+    	return matchProductionToTestFile(prodFiles, testFiles, InfoFile::name);
     }
     
-    private Map<InfoFile, InfoFile> matchProductionToTestFile ( final List<InfoFile> prodFiles, final List<InfoFile> testFiles )
+    /**
+     * Matches each production file {@code Name} to the test files {@code NameTest}, {@code NameTestSuite} or {@code TestName}.
+     * A test file is only matched to the first production file, and when several test files match the same
+     * production file the last one is kept. Test files are indexed by name instead of checking every pair.
+     */
+    static <T> Map<T, T> matchProductionToTestFile ( final List<T> prodFiles, final List<T> testFiles, final Function<T, String> nameOf )
     {
-    	Map<InfoFile, InfoFile> result = new HashMap<>();
+    	Map<T, T> result = new HashMap<>();
     	boolean[] testFilesMask = new boolean[testFiles.size()];
-    	for ( InfoFile file: prodFiles )
+    	Map<String, List<Integer>> testFilesByName = new HashMap<>();
+    	for ( int i = 0; i < testFilesMask.length; i++ )
+    	{
+    		testFilesByName.computeIfAbsent(nameOf.apply(testFiles.get(i)), name -> new ArrayList<>()).add(i);
+    	}
+    	for ( T file: prodFiles )
     	{
-    		for ( int i = 0; i < testFilesMask.length; i++ )
+    		final String name = nameOf.apply(file);
+    		final TreeSet<Integer> candidates = new TreeSet<>();
+    		for ( String testName: Arrays.asList(name+"Test", name+"TestSuite", "Test"+name) )
+    		{
+    			candidates.addAll(testFilesByName.getOrDefault(testName, Collections.emptyList()));
+    		}
+    		for ( int i: candidates )
     		{
     			if (testFilesMask[i])
     				continue;
-    			InfoFile testFile = testFiles.get(i);
-    			if (checkProductionMatchTestFile(file, testFile))
-    			{
-    				testFilesMask[i] = true;
-    				result.put(file, testFile);
-    			}
+    			testFilesMask[i] = true;
+    			result.put(file, testFiles.get(i));
     		}
     	}
     	return result;
@@ -347,14 +635,12 @@ public class MyMojo extends AbstractMojo
     	}
     }
 
-    private void printOutputFor ( Process proc ) throws MojoExecutionException
+    private void printOutputFor ( File output ) throws MojoExecutionException
 	{
-		InputStream out = proc.getInputStream();
-		byte bytes[];
+		if (!verbose)
+			return;
 		try {
-			bytes = new byte[out.available()];
-			out.read(bytes,0,bytes.length);
-			info(new String(bytes), VERBOSE);
+			info("%s", new String(Files.readAllBytes(output.toPath())), VERBOSE);
 		}
 		catch (IOException e) {
 			throw reportException(e, "There was an error reading the output for the process");
@@ -0,0 +1,147 @@
+package es.upm.alumnos.profundizacion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Totals of a report by test smell, by package and of its worst test files, gathered on a single pass.
+ * Only the {@code topFiles} worst test files are kept, on a bounded heap. Totals that don't fit
+ * on a {@code long} stay at {@link Long#MAX_VALUE}, like the ones of {@link SmellTable}.
+ */
+public class SmellSummary
+{
+	/**
+	 * Lines passed to another consumer up to a maximum, the rest are only counted.
+	 * A maximum of 0 or less passes every line.
+	 */
+	public static class LimitedLines implements Consumer<String>
+	{
+		private final Consumer<String> out;
+		private final int max;
+		private int lines = 0;
+
+		public LimitedLines ( Consumer<String> out, int max )
+		{
+			this.out = out;
+			this.max = max;
+		}
+
+		@Override
+		public void accept ( String line )
+		{
+			if (max <= 0 || lines < max)
+				out.accept(line);
+			lines++;
+		}
+
+		public int skipped ( )
+		{
+			return max > 0 ? Math.max(0, lines - max) : 0;
+		}
+	}
+
+	private final long total;
+	private final List<Map.Entry<String, Long>> smellTotals = new ArrayList<>();
+	private final List<Map.Entry<String, Long>> worstFiles;
+	private final List<Map.Entry<String, Long>> packageTotals;
+
+	public SmellSummary ( SmellTable report, int topFiles, Function<String, String> packageOf )
+	{
+		final long[] smells = new long[report.smells()];
+		final Map<String, Long> packages = new HashMap<>();
+		final PriorityQueue<Map.Entry<String, Long>> worst = new PriorityQueue<>(Map.Entry.comparingByValue());
+		long result = 0;
+		for (int row = 0; row < report.rows(); row++)
+		{
+			long fileTotal = 0;
+			for (int smell = 0; smell < smells.length; smell++)
+			{
+				final long count = report.count(row, smell);
+				smells[smell] = SmellTable.addCounts(smells[smell], count);
+				fileTotal = SmellTable.addCounts(fileTotal, count);
+			}
+			if (fileTotal == 0)
+				continue;
+			result = SmellTable.addCounts(result, fileTotal);
+			packages.merge(packageOf.apply(report.testFile(row)), fileTotal, SmellTable::addCounts);
+			if (topFiles > 0)
+			{
+				worst.offer(new AbstractMap.SimpleImmutableEntry<>(report.testFile(row), fileTotal));
+				if (worst.size() > topFiles)
+					worst.poll();
+			}
+		}
+		total = result;
+		for (int smell = 0; smell < smells.length; smell++)
+		{
+			if (smells[smell] > 0)
+				smellTotals.add(new AbstractMap.SimpleImmutableEntry<>(report.smell(smell), smells[smell]));
+		}
+		smellTotals.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+		worstFiles = new ArrayList<>(worst);
+		worstFiles.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+		packageTotals = packages.entrySet().stream()
+			.sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+			.collect(Collectors.toList());
+	}
+
+	public long total ( ) { return total; }
+	public List<Map.Entry<String, Long>> smellTotals ( ) { return smellTotals; }
+	public List<Map.Entry<String, Long>> worstFiles ( ) { return worstFiles; }
+	public List<Map.Entry<String, Long>> packageTotals ( ) { return packageTotals; }
+
+	/**
+	 * Prints the totals by test smell, the worst test files and the totals by package.
+	 */
+	public void print ( Consumer<String> console )
+	{
+		console.accept("Test smells by type:");
+		smellTotals.forEach(entry -> console.accept(String.format(" - %s: %d", entry.getKey(), entry.getValue())));
+		console.accept(String.format("Worst %d test file(s):", worstFiles.size()));
+		worstFiles.forEach(entry -> console.accept(String.format(" - %s: %d", entry.getKey(), entry.getValue())));
+		console.accept("Test smells by package:");
+		packageTotals.forEach(entry -> console.accept(String.format(" - %s: %d", entry.getKey(), entry.getValue())));
+	}
+
+	/**
+	 * Writes every test smell of every test file, and also passes each line to {@code console} if it isn't {@code null}.
+	 */
+	public static void writeDetail ( SmellTable report, BufferedWriter writer, Consumer<String> console ) throws IOException
+	{
+		for (int row = 0; row < report.rows(); row++)
+		{
+			boolean printedBefore = false;
+			for (int smell = 0; smell < report.smells(); smell++)
+			{
+				final long count = report.count(row, smell);
+				if (count <= 0)
+					continue;
+				if (!printedBefore)
+				{
+					writeLine(writer, console, "Detected test smells:");
+					writeLine(writer, console, String.format(" -       App: %s", report.app(row)));
+					writeLine(writer, console, String.format(" - Test File: %s", report.testFile(row)));
+					printedBefore = true;
+				}
+				writeLine(writer, console, String.format("  + %s count: %d", report.smell(smell), count));
+			}
+		}
+	}
+
+	private static void writeLine ( BufferedWriter writer, Consumer<String> console, String line ) throws IOException
+	{
+		writer.write(line);
+		writer.newLine();
+		if (console != null)
+			console.accept(line);
+	}
+}
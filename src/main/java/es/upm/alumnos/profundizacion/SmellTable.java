@@ -0,0 +1,308 @@
+package es.upm.alumnos.profundizacion;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test smell counts of one or more Output_TestSmellDetection_*.csv files.
+ * The files are memory-mapped and tokenized over their bytes, the counts are kept on a single
+ * {@code long} array of test files (rows) by test smells (columns). Counts and totals too big for
+ * a {@code long} stay at {@link Long#MAX_VALUE}.
+ * A test file read again replaces its previous counts, so the newest file must be read last.
+ */
+public class SmellTable
+{
+	public static final int NON_TEST_SMELL_COLUMNS = 7;
+	private static final int APP_COLUMN = 0;
+	private static final int TEST_FILE_COLUMN = 2;
+
+	private String metadataHeader;
+	private final List<String> smells = new ArrayList<>();
+	private final Map<String, Integer> smellIds = new HashMap<>();
+	private final List<String> testFiles = new ArrayList<>();
+	private final Map<String, Integer> testFileIds = new HashMap<>();
+	private final List<String> apps = new ArrayList<>();
+	private final Map<String, Integer> appIds = new HashMap<>();
+	private final List<String> metadata = new ArrayList<>();
+	private int[] rowApps = new int[16];
+	private long[] counts = new long[0];
+
+	public static SmellTable read ( File... reports ) throws IOException
+	{
+		final SmellTable result = new SmellTable();
+		for (File report: reports)
+		{
+			result.add(report);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the rows of a report to the table.
+	 */
+	public void add ( File report ) throws IOException
+	{
+		try (RandomAccessFile file = new RandomAccessFile(report, "r");
+		     FileChannel channel = file.getChannel()) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Report too big to be mapped: " + report.getAbsolutePath());
+			add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Adds the rows of another table, with the same rules as {@link #add(File)}.
+	 */
+	public void add ( SmellTable other )
+	{
+		if (metadataHeader == null)
+			metadataHeader = other.metadataHeader;
+		final int[] columns = new int[other.smells()];
+		for (int s = 0; s < columns.length; s++)
+		{
+			columns[s] = smellId(other.smell(s));
+		}
+		for (int r = 0; r < other.rows(); r++)
+		{
+			final int row = row(other.testFile(r), other.app(r), other.metadata.get(r));
+			Arrays.fill(counts, row * smells.size(), (row + 1) * smells.size(), 0);
+			for (int s = 0; s < columns.length; s++)
+			{
+				counts[row * smells.size() + columns[s]] = other.count(r, s);
+			}
+		}
+	}
+
+	private void add ( MappedByteBuffer buffer )
+	{
+		final int limit = buffer.limit();
+		int position = 0;
+		int[] columns = null;
+		while (position < limit)
+		{
+			int end = position;
+			while (end < limit && buffer.get(end) != '\n')
+				end++;
+			int lineEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+			if (lineEnd > position)
+			{
+				if (columns == null)
+					columns = header(buffer, position, lineEnd);
+				else
+					row(buffer, position, lineEnd, columns);
+			}
+			position = end + 1;
+		}
+	}
+
+	private int[] header ( MappedByteBuffer buffer, int from, int to )
+	{
+		final String[] names = decode(buffer, from, to).split(",");
+		if (metadataHeader == null)
+			metadataHeader = String.join(",", Arrays.copyOf(names, Math.min(names.length, NON_TEST_SMELL_COLUMNS)));
+		final int[] result = new int[Math.max(0, names.length - NON_TEST_SMELL_COLUMNS)];
+		for (int s = 0; s < result.length; s++)
+		{
+			result[s] = smellId(names[NON_TEST_SMELL_COLUMNS + s]);
+		}
+		return result;
+	}
+
+	private void row ( MappedByteBuffer buffer, int from, int to, int[] columns )
+	{
+		String app = "";
+		String testFile = null;
+		int column = 0;
+		int fieldStart = from;
+		int position = from;
+		for (; position < to && column < NON_TEST_SMELL_COLUMNS; position++)
+		{
+			if (buffer.get(position) != ',')
+				continue;
+			if (column == APP_COLUMN)
+				app = decode(buffer, fieldStart, position);
+			else if (column == TEST_FILE_COLUMN)
+				testFile = decode(buffer, fieldStart, position);
+			column++;
+			fieldStart = position + 1;
+		}
+		if (testFile == null)
+			return;
+		final int metadataEnd = column == NON_TEST_SMELL_COLUMNS ? position - 1 : position;
+		final int row = row(testFile, app, decode(buffer, from, metadataEnd));
+		Arrays.fill(counts, row * smells.size(), (row + 1) * smells.size(), 0);
+
+		int smell = 0;
+		long value = 0;
+		boolean numeric = true;
+		for (; position <= to && smell < columns.length; position++)
+		{
+			final byte b = position < to ? buffer.get(position) : (byte) ',';
+			if (b == ',')
+			{
+				counts[row * smells.size() + columns[smell]] = numeric ? value : 0;
+				smell++;
+				value = 0;
+				numeric = true;
+			}
+			else if (b >= '0' && b <= '9')
+				value = value > (Long.MAX_VALUE - (b - '0')) / 10 ? Long.MAX_VALUE : value * 10 + (b - '0');
+			else
+				numeric = false;
+		}
+	}
+
+	private static String decode ( MappedByteBuffer buffer, int from, int to )
+	{
+		final byte[] bytes = new byte[to - from];
+		final ByteBuffer slice = buffer.duplicate();
+		((Buffer) slice).position(from);
+		slice.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int smellId ( String smell )
+	{
+		final Integer id = smellIds.get(smell);
+		if (id != null)
+			return id;
+		final int oldColumns = smells.size();
+		smellIds.put(smell, oldColumns);
+		smells.add(smell);
+		final long[] widened = new long[rowCapacity() * smells.size()];
+		for (int r = 0; r < testFiles.size(); r++)
+		{
+			System.arraycopy(counts, r * oldColumns, widened, r * smells.size(), oldColumns);
+		}
+		counts = widened;
+		return oldColumns;
+	}
+
+	private int row ( String testFile, String app, String rowMetadata )
+	{
+		Integer row = testFileIds.get(testFile);
+		if (row == null)
+		{
+			row = testFiles.size();
+			testFileIds.put(testFile, row);
+			testFiles.add(testFile);
+			metadata.add(rowMetadata);
+			if (row >= rowCapacity())
+			{
+				counts = Arrays.copyOf(counts, 2 * rowCapacity() * smells.size());
+				rowApps = Arrays.copyOf(rowApps, 2 * rowCapacity());
+			}
+		}
+		else
+			metadata.set(row, rowMetadata);
+		rowApps[row] = appIds.computeIfAbsent(app, name -> { apps.add(name); return apps.size() - 1; });
+		return row;
+	}
+
+	private int rowCapacity ( )
+	{
+		return rowApps.length;
+	}
+
+	public int rows ( ) { return testFiles.size(); }
+	public int smells ( ) { return smells.size(); }
+	public String smell ( int smell ) { return smells.get(smell); }
+	public String testFile ( int row ) { return testFiles.get(row); }
+	public String app ( int row ) { return apps.get(rowApps[row]); }
+	public long count ( int row, int smell ) { return counts[row * smells.size() + smell]; }
+
+	/**
+	 * Row of a test file, -1 if the test file isn't on the table.
+	 */
+	public int rowOf ( String testFile )
+	{
+		final Integer row = testFileIds.get(testFile);
+		return row != null ? row : -1;
+	}
+
+	public long rowTotal ( int row )
+	{
+		long result = 0;
+		for (int s = 0; s < smells.size(); s++)
+		{
+			result = addCounts(result, counts[row * smells.size() + s]);
+		}
+		return result;
+	}
+
+	public long smellTotal ( int smell )
+	{
+		long result = 0;
+		for (int r = 0; r < testFiles.size(); r++)
+		{
+			result = addCounts(result, counts[r * smells.size() + smell]);
+		}
+		return result;
+	}
+
+	public long total ( )
+	{
+		long result = 0;
+		for (int i = 0; i < testFiles.size() * smells.size(); i++)
+		{
+			result = addCounts(result, counts[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Sum of two counts, {@link Long#MAX_VALUE} if it doesn't fit.
+	 */
+	static long addCounts ( long total, long count )
+	{
+		return total > Long.MAX_VALUE - count ? Long.MAX_VALUE : total + count;
+	}
+
+	/**
+	 * Total of a test file on another table, 0 if it isn't there.
+	 */
+	public long rowTotalOn ( SmellTable other, int row )
+	{
+		final int otherRow = other.rowOf(testFile(row));
+		return otherRow < 0 ? 0 : other.rowTotal(otherRow);
+	}
+
+	/**
+	 * Writes the table with the columns of the detector output.
+	 */
+	public void write ( File report ) throws IOException
+	{
+		try (BufferedWriter writer = Files.newBufferedWriter(report.toPath())) {
+			writer.write(metadataHeader != null ? metadataHeader : "");
+			for (String smell: smells)
+			{
+				writer.write(',');
+				writer.write(smell);
+			}
+			writer.newLine();
+			for (int r = 0; r < testFiles.size(); r++)
+			{
+				writer.write(metadata.get(r));
+				for (int s = 0; s < smells.size(); s++)
+				{
+					writer.write(',');
+					writer.write(Long.toString(counts[r * smells.size() + s]));
+				}
+				writer.newLine();
+			}
+		}
+	}
+}
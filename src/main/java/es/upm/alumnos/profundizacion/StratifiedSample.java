@@ -0,0 +1,176 @@
+package es.upm.alumnos.profundizacion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Stratified random sample of a population with the extrapolation of its totals.
+ * The sample is {@code rate} of the population, at least 2 elements, split across the strata by their size.
+ * Strata too small to get 2 elements of the sample are merged with the next ones in key order, so every
+ * stratum has a variance of its own. The same population, rate and seed always select the same elements.
+ */
+public class StratifiedSample<T>
+{
+	/** Normal quantile for a 95% confidence interval. */
+	private static final double Z_95 = 1.959964;
+
+	public static class Estimate
+	{
+		private final double value;
+		private final double margin;
+
+		public Estimate ( double value, double margin )
+		{
+			this.value = value;
+			this.margin = margin;
+		}
+		public double value() { return value; }
+		public double lower() { return Math.max(0, value - margin); }
+		public double upper() { return value + margin; }
+	}
+
+	private final TreeMap<String, List<T>> strata = new TreeMap<>();
+	private final Map<String, List<T>> selected = new TreeMap<>();
+
+	/**
+	 * @param population elements to sample
+	 * @param stratumOf key of the stratum of each element
+	 * @param order total order of the elements, it makes the selection independent of the collection order
+	 * @param rate fraction of the population to select
+	 * @param seed seed of the selection
+	 */
+	public StratifiedSample ( Collection<T> population, Function<T, String> stratumOf, Comparator<T> order, double rate, long seed )
+	{
+		final Map<String, List<T>> keys = new TreeMap<>();
+		for (T element: population)
+		{
+			keys.computeIfAbsent(stratumOf.apply(element), key -> new ArrayList<>()).add(element);
+		}
+		final int size = population.size();
+		final int sampleSize = Math.min(size, Math.max(2, (int) Math.ceil(rate * size)));
+		final int maxStrata = Math.max(1, sampleSize / 2);
+		merge(keys, (size + maxStrata - 1) / maxStrata);
+		for (Map.Entry<String, List<T>> stratum: strata.entrySet())
+		{
+			final List<T> elements = stratum.getValue();
+			elements.sort(order);
+			final List<T> shuffled = new ArrayList<>(elements);
+			Collections.shuffle(shuffled, new Random(seed ^ stratum.getKey().hashCode()));
+			final int stratumSample = Math.min(elements.size(), Math.max(2, (int) Math.round((double) sampleSize * elements.size() / size)));
+			selected.put(stratum.getKey(), new ArrayList<>(shuffled.subList(0, stratumSample)));
+		}
+	}
+
+	/**
+	 * Puts the strata of each key on {@link #strata}, the ones under {@code minSize} elements together
+	 * with the next ones until they reach it. A last stratum still under 2 elements goes to the previous one.
+	 */
+	private void merge ( Map<String, List<T>> keys, int minSize )
+	{
+		String key = null;
+		List<T> elements = new ArrayList<>();
+		for (Map.Entry<String, List<T>> stratum: keys.entrySet())
+		{
+			if (key == null)
+				key = stratum.getKey();
+			elements.addAll(stratum.getValue());
+			if (elements.size() >= minSize)
+			{
+				strata.put(key, elements);
+				key = null;
+				elements = new ArrayList<>();
+			}
+		}
+		if (key == null)
+			return;
+		if (elements.size() < 2 && !strata.isEmpty())
+			strata.lastEntry().getValue().addAll(elements);
+		else
+			strata.put(key, elements);
+	}
+
+	public List<T> selected ( )
+	{
+		final List<T> result = new ArrayList<>();
+		selected.values().forEach(result::addAll);
+		return result;
+	}
+
+	public int populationSize ( )
+	{
+		return strata.values().stream().mapToInt(List::size).sum();
+	}
+
+	public int strataCount ( )
+	{
+		return strata.size();
+	}
+
+	/**
+	 * Extrapolates the population total of each column from the counts of the selected elements.
+	 *
+	 * @param countsOf counts of a selected element, {@code null} counts as zero on every column
+	 * @param columns number of columns
+	 */
+	public Estimate[] estimate ( Function<T, long[]> countsOf, int columns )
+	{
+		final double[] totals = new double[columns];
+		final double[] variances = new double[columns];
+		for (Map.Entry<String, List<T>> stratum: selected.entrySet())
+		{
+			final int populationSize = strata.get(stratum.getKey()).size();
+			final List<long[]> sample = new ArrayList<>();
+			stratum.getValue().forEach(element -> sample.add(counts(countsOf, element, columns)));
+			final int sampleSize = sample.size();
+			for (int c = 0; c < columns; c++)
+			{
+				double sum = 0;
+				for (long[] counts: sample)
+				{
+					sum += counts[c];
+				}
+				totals[c] += populationSize * sum / sampleSize;
+				final double finiteCorrection = 1 - (double) sampleSize / populationSize;
+				variances[c] += (double) populationSize * populationSize * finiteCorrection * variance(sample, c) / sampleSize;
+			}
+		}
+
+		final Estimate[] result = new Estimate[columns];
+		for (int c = 0; c < columns; c++)
+		{
+			result[c] = new Estimate(totals[c], Z_95 * Math.sqrt(variances[c]));
+		}
+		return result;
+	}
+
+	private static <T> long[] counts ( Function<T, long[]> countsOf, T element, int columns )
+	{
+		final long[] counts = countsOf.apply(element);
+		return counts != null ? counts : new long[columns];
+	}
+
+	private static double variance ( List<long[]> sample, int column )
+	{
+		if (sample.size() < 2)
+			return 0;
+		double mean = 0;
+		for (long[] counts: sample)
+		{
+			mean += counts[column];
+		}
+		mean /= sample.size();
+		double result = 0;
+		for (long[] counts: sample)
+		{
+			result += (counts[column] - mean) * (counts[column] - mean);
+		}
+		return result / (sample.size() - 1);
+	}
+}
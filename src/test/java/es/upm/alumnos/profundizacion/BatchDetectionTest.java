@@ -0,0 +1,140 @@
+package es.upm.alumnos.profundizacion;
+
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchDetectionTest
+{
+    private static final String HEADER = "App,TestClass,TestFilePath,ProductionFilePath,RelativeTestFilePath,RelativeProductionFilePath,NumberOfMethods,Assertion Roulette";
+
+    /** Report with one row per file, every file with {@code smells} test smells. */
+    private static SmellTable report ( List<String> files, int smells ) throws MojoExecutionException
+    {
+        return report(files, Integer.toString(smells));
+    }
+
+    private static SmellTable report ( List<String> files, String smells ) throws MojoExecutionException
+    {
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        files.forEach(file -> lines.add("app,T," + file + ",P,,,1," + smells));
+        try {
+            final File report = File.createTempFile("Output_TestSmellDetection_", ".csv");
+            report.deleteOnExit();
+            Files.write(report.toPath(), lines);
+            return SmellTable.read(report);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can't write the test report", e);
+        }
+    }
+
+    private static List<List<String>> batches ( int count )
+    {
+        final List<List<String>> result = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            result.add(Arrays.asList("/t/Batch" + i + "Test.java"));
+        return result;
+    }
+
+    @Test
+    public void testScheduleOrdersByPriorCountThenCost()
+    {
+        final List<String> files = Arrays.asList("a", "bbbb", "cc", "ddd");
+        final List<List<String>> batches = BatchDetection.schedule(files, file -> file.equals("cc") ? 5 : 0, String::length, 2);
+
+        assertEquals( Arrays.asList(Arrays.asList("cc", "bbbb"), Arrays.asList("ddd", "a")), batches );
+    }
+
+    @Test
+    public void testScheduleSplitsInBatches()
+    {
+        final List<String> files = Arrays.asList("a", "b", "c", "d", "e");
+
+        assertEquals( 3, BatchDetection.schedule(files, file -> 0, file -> 0, 2).size() );
+        assertEquals( 1, BatchDetection.schedule(files, file -> 0, file -> 0, 2).get(2).size() );
+        assertEquals( 1, BatchDetection.schedule(files, file -> 0, file -> 0, 0).size() );
+        assertEquals( Collections.singletonList(Collections.emptyList()), BatchDetection.schedule(Collections.<String>emptyList(), file -> 0, file -> 0, 2) );
+    }
+
+    @Test
+    public void testRunMergesEveryBatchInOrder() throws Exception
+    {
+        final BatchDetection<String> detection = new BatchDetection<>(4, true, 100);
+        final SmellTable result = detection.run(batches(8), (index, files) -> report(files, 1), (index, completed, total) -> {});
+
+        assertFalse( detection.partial() );
+        assertEquals( 8, detection.completed() );
+        assertEquals( 8, result.rows() );
+        for (int i = 0; i < 8; i++)
+            assertEquals( "/t/Batch" + i + "Test.java", result.testFile(i) );
+    }
+
+    @Test
+    public void testFailFastCancelsRemainingBatches() throws Exception
+    {
+        final AtomicInteger runs = new AtomicInteger();
+        final BatchDetection<String> detection = new BatchDetection<>(1, true, 2);
+        final SmellTable result = detection.run(batches(10), (index, files) -> {
+            runs.incrementAndGet();
+            return report(files, 2);
+        }, (index, completed, total) -> {});
+
+        assertTrue( detection.partial() );
+        assertEquals( 2, detection.completed() );
+        assertEquals( 4, result.total() );
+        assertTrue( runs.get() < 10 );
+    }
+
+    @Test
+    public void testFailFastWithCountsBeyondLong() throws Exception
+    {
+        final List<Long> totals = new ArrayList<>();
+        final BatchDetection<String> detection = new BatchDetection<>(1, true, 100);
+        final SmellTable result = detection.run(batches(3),
+            (index, files) -> index == 0 ? report(files, "99999999999999999999") : report(files, 5),
+            (index, completed, total) -> totals.add(total));
+
+        assertTrue( detection.partial() );
+        assertEquals( Collections.singletonList(Long.MAX_VALUE), totals );
+        assertTrue( result.total() > 100 );
+    }
+
+    @Test
+    public void testWithoutFailFastEveryBatchRuns() throws Exception
+    {
+        final BatchDetection<String> detection = new BatchDetection<>(2, false, 0);
+        final SmellTable result = detection.run(batches(5), (index, files) -> report(files, 3), (index, completed, total) -> {});
+
+        assertFalse( detection.partial() );
+        assertEquals( 15, result.total() );
+    }
+
+    @Test
+    public void testFailedBatchFailsTheRun() throws Exception
+    {
+        final BatchDetection<String> detection = new BatchDetection<>(2, true, 1000);
+        try {
+            detection.run(batches(4), (index, files) -> {
+                if (index == 2)
+                    throw new MojoExecutionException("Batch 3: the JAR exited with code 1");
+                return report(files, 0);
+            }, (index, completed, total) -> {});
+            fail( "A failed batch must not be skipped" );
+        }
+        catch (MojoExecutionException e) {
+            assertEquals( "Batch 3: the JAR exited with code 1", e.getMessage() );
+        }
+    }
+}
@@ -8,6 +8,13 @@ import org.junit.Rule;
 import static org.junit.Assert.*;
 import org.junit.Test;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class MyMojoTest
 {
@@ -51,6 +58,65 @@ public class MyMojoTest
         //assertEquals(expectedOutputDirectory, outputDirectory);
     }
 
+    @WithoutMojo
+    @Test
+    public void testOutputReportNames()
+    {
+        assertEquals( "Output_TestSmellDetection_123.csv", MyMojo.outputReportName(123, false, false) );
+        assertEquals( "Output_TestSmellDetection_123.partial.csv", MyMojo.outputReportName(123, true, false) );
+        assertEquals( "Output_TestSmellDetection_123.sample.csv", MyMojo.outputReportName(123, false, true) );
+        assertEquals( "Output_TestSmellDetection_123.sample.csv", MyMojo.outputReportName(123, true, true) );
+    }
+
+    @WithoutMojo
+    @Test
+    public void testLastOutputReportSkipsOtherKinds() throws IOException
+    {
+        File dir = Files.createTempDirectory("reports").toFile();
+        dir.deleteOnExit();
+        for (String name: new String[] { "Output_TestSmellDetection_100.csv", "Output_TestSmellDetection_300.partial.csv",
+                                         "Output_TestSmellDetection_400.sample.csv", "Output_TestSmellDetection_200.csv",
+                                         "Output_TestSmellDetection_x.csv" })
+        {
+            File report = new File(dir, name);
+            assertTrue( report.createNewFile() );
+            report.deleteOnExit();
+        }
+
+        assertEquals( "Output_TestSmellDetection_200.csv", MyMojo.lastOutputReport(dir, ".csv").getName() );
+        assertEquals( "Output_TestSmellDetection_300.partial.csv", MyMojo.lastOutputReport(dir, ".partial.csv").getName() );
+        assertEquals( "Output_TestSmellDetection_400.sample.csv", MyMojo.lastOutputReport(dir, ".sample.csv").getName() );
+        assertNull( MyMojo.lastOutputReport(new File(dir, "missing"), ".csv") );
+    }
+
+    private static final Function<String, String> SIMPLE_NAME = path -> path.substring(path.lastIndexOf('/') + 1);
+
+    @WithoutMojo
+    @Test
+    public void testMatchingNamingRules()
+    {
+        List<String> prodFiles = Arrays.asList("p/A", "p/B", "p/C", "p/D");
+        List<String> testFiles = Arrays.asList("t/ATest", "t/BTestSuite", "t/TestC", "t/DTests", "t/ETest");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("p/A", "t/ATest");
+        expected.put("p/B", "t/BTestSuite");
+        expected.put("p/C", "t/TestC");
+        assertEquals( expected, MyMojo.matchProductionToTestFile(prodFiles, testFiles, SIMPLE_NAME) );
+    }
+
+    @WithoutMojo
+    @Test
+    public void testMatchingTestFileMatchedOnce()
+    {
+        List<String> prodFiles = Arrays.asList("a/Foo", "b/Foo", "c/Foo");
+        List<String> testFiles = Arrays.asList("x/FooTest", "y/TestFoo", "z/FooTest");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a/Foo", "z/FooTest");
+        assertEquals( expected, MyMojo.matchProductionToTestFile(prodFiles, testFiles, SIMPLE_NAME) );
+    }
+
     /** Do not need the MojoRule. */
     @WithoutMojo
     @Test
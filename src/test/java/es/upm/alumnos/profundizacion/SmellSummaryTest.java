@@ -0,0 +1,133 @@
+package es.upm.alumnos.profundizacion;
+
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class SmellSummaryTest
+{
+    private static final String HEADER = "App,TestClass,TestFilePath,ProductionFilePath,RelativeTestFilePath,RelativeProductionFilePath,NumberOfMethods,Assertion Roulette,EmptyTest";
+
+    private static SmellTable report ( String... rows ) throws IOException
+    {
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.addAll(Arrays.asList(rows));
+        final File report = File.createTempFile("Output_TestSmellDetection_", ".csv");
+        report.deleteOnExit();
+        Files.write(report.toPath(), lines);
+        return SmellTable.read(report);
+    }
+
+    private static SmellTable sample ( ) throws IOException
+    {
+        return report(
+            "app,ATest,/t/a/ATest.java,/p/A.java,,,1,1,0",
+            "app,BTest,/t/a/BTest.java,/p/B.java,,,1,4,2",
+            "app,CTest,/t/b/CTest.java,/p/C.java,,,1,0,0",
+            "app,DTest,/t/b/DTest.java,/p/D.java,,,1,3,0",
+            "app,ETest,/t/c/ETest.java,/p/E.java,,,1,0,2");
+    }
+
+    private static String packageOf ( String testFile )
+    {
+        return new File(testFile).getParentFile().getName();
+    }
+
+    private static Map.Entry<String, Long> entry ( String key, long value )
+    {
+        return new AbstractMap.SimpleImmutableEntry<>(key, value);
+    }
+
+    @Test
+    public void testTotalsBySmell() throws IOException
+    {
+        final SmellSummary summary = new SmellSummary(sample(), 10, SmellSummaryTest::packageOf);
+
+        assertEquals( 12, summary.total() );
+        assertEquals( Arrays.asList(entry("Assertion Roulette", 8), entry("EmptyTest", 4)), summary.smellTotals() );
+    }
+
+    @Test
+    public void testWorstFilesKeepsOnlyTop() throws IOException
+    {
+        final SmellSummary summary = new SmellSummary(sample(), 2, SmellSummaryTest::packageOf);
+
+        assertEquals( Arrays.asList(entry("/t/a/BTest.java", 6), entry("/t/b/DTest.java", 3)), summary.worstFiles() );
+        assertTrue( new SmellSummary(sample(), 0, SmellSummaryTest::packageOf).worstFiles().isEmpty() );
+    }
+
+    @Test
+    public void testTotalsByPackage() throws IOException
+    {
+        final SmellSummary summary = new SmellSummary(sample(), 10, SmellSummaryTest::packageOf);
+
+        assertEquals( Arrays.asList(entry("a", 7), entry("b", 3), entry("c", 2)), summary.packageTotals() );
+    }
+
+    @Test
+    public void testTotalsBeyondLongExceedTheThreshold() throws IOException
+    {
+        final SmellTable table = report(
+            "app,ATest,/t/a/ATest.java,/p/A.java,,,1,99999999999999999999,0",
+            "app,BTest,/t/a/BTest.java,/p/B.java,,,1,0,5");
+        final SmellSummary summary = new SmellSummary(table, 10, SmellSummaryTest::packageOf);
+
+        assertEquals( table.total(), summary.total() );
+        assertEquals( Long.MAX_VALUE, summary.total() );
+        assertTrue( summary.total() > 100 );
+        assertEquals( Arrays.asList(entry("a", Long.MAX_VALUE)), summary.packageTotals() );
+    }
+
+    @Test
+    public void testLimitedLines()
+    {
+        final List<String> printed = new ArrayList<>();
+        final SmellSummary.LimitedLines limited = new SmellSummary.LimitedLines(printed::add, 2);
+        Arrays.asList("1", "2", "3", "4").forEach(limited);
+
+        assertEquals( Arrays.asList("1", "2"), printed );
+        assertEquals( 2, limited.skipped() );
+    }
+
+    @Test
+    public void testUnlimitedLinesSkipNothing()
+    {
+        final List<String> printed = new ArrayList<>();
+        final SmellSummary.LimitedLines unlimited = new SmellSummary.LimitedLines(printed::add, 0);
+        Arrays.asList("1", "2", "3").forEach(unlimited);
+
+        assertEquals( 3, printed.size() );
+        assertEquals( 0, unlimited.skipped() );
+    }
+
+    @Test
+    public void testDetailHasEveryCount() throws IOException
+    {
+        final File detail = File.createTempFile("Detail_TestSmellDetection_", ".txt");
+        detail.deleteOnExit();
+        final List<String> console = new ArrayList<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(detail.toPath())) {
+            SmellSummary.writeDetail(report("app,BTest,/t/a/BTest.java,/p/B.java,,,1,4,2", "app,CTest,/t/b/CTest.java,/p/C.java,,,1,0,0"), writer, console::add);
+        }
+        final List<String> expected = Arrays.asList(
+            "Detected test smells:",
+            " -       App: app",
+            " - Test File: /t/a/BTest.java",
+            "  + Assertion Roulette count: 4",
+            "  + EmptyTest count: 2");
+
+        assertEquals( expected, Files.readAllLines(detail.toPath()) );
+        assertEquals( expected, console );
+    }
+}
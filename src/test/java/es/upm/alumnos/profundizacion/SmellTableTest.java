@@ -0,0 +1,86 @@
+package es.upm.alumnos.profundizacion;
+
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class SmellTableTest
+{
+    private static final String HEADER = "App,TestClass,TestFilePath,ProductionFilePath,RelativeTestFilePath,RelativeProductionFilePath,NumberOfMethods";
+
+    private static File report ( String... lines ) throws IOException
+    {
+        final File result = File.createTempFile("Output_TestSmellDetection_", ".csv");
+        result.deleteOnExit();
+        Files.write(result.toPath(), Arrays.asList(lines));
+        return result;
+    }
+
+    @Test
+    public void testReadCounts() throws Exception
+    {
+        final SmellTable table = SmellTable.read(report(
+            HEADER + ",Assertion Roulette,EmptyTest",
+            "app,ATest,/p/ATest.java,/p/A.java,,,2,3,0",
+            "app,BTest,/p/BTest.java,/p/B.java,,,1,false,12\r"));
+
+        assertEquals( 2, table.rows() );
+        assertEquals( 2, table.smells() );
+        assertEquals( "EmptyTest", table.smell(1) );
+        assertEquals( "app", table.app(0) );
+        assertEquals( 3, table.count(table.rowOf("/p/ATest.java"), 0) );
+        assertEquals( 0, table.count(table.rowOf("/p/BTest.java"), 0) );
+        assertEquals( 12, table.count(table.rowOf("/p/BTest.java"), 1) );
+        assertEquals( 15, table.total() );
+        assertEquals( -1, table.rowOf("/p/CTest.java") );
+    }
+
+    @Test
+    public void testCountsBeyondInt() throws Exception
+    {
+        final SmellTable table = SmellTable.read(report(
+            HEADER + ",Assertion Roulette,EmptyTest",
+            "app,ATest,/p/ATest.java,/p/A.java,,,2,99999999999,1",
+            "app,BTest,/p/BTest.java,/p/B.java,,,1,99999999999999999999,0"));
+
+        assertEquals( 99999999999L, table.count(table.rowOf("/p/ATest.java"), 0) );
+        assertEquals( 100000000000L, table.rowTotal(table.rowOf("/p/ATest.java")) );
+        assertEquals( Long.MAX_VALUE, table.count(table.rowOf("/p/BTest.java"), 0) );
+        assertEquals( Long.MAX_VALUE, table.total() );
+    }
+
+    @Test
+    public void testMergeReplacesRowsAndAddsColumns() throws Exception
+    {
+        final SmellTable table = SmellTable.read(
+            report(HEADER + ",Assertion Roulette", "app,ATest,/p/ATest.java,/p/A.java,,,2,3"),
+            report(HEADER + ",EmptyTest,Assertion Roulette", "app,ATest,/p/ATest.java,/p/A.java,,,2,1,1", "app,BTest,/p/BTest.java,/p/B.java,,,1,0,4"));
+
+        assertEquals( 2, table.rows() );
+        assertEquals( 2, table.smells() );
+        assertEquals( 2, table.rowTotal(table.rowOf("/p/ATest.java")) );
+        assertEquals( 5, table.smellTotal(0) );
+        assertEquals( 1, table.smellTotal(1) );
+    }
+
+    @Test
+    public void testWriteAndReadBack() throws Exception
+    {
+        final SmellTable table = SmellTable.read(report(
+            HEADER + ",Assertion Roulette,EmptyTest",
+            "app,ATest,/p/ATest.java,/p/A.java,,,2,3,0"));
+        final SmellTable merged = new SmellTable();
+        merged.add(table);
+        final File written = report();
+        merged.write(written);
+
+        assertEquals( Arrays.asList(HEADER + ",Assertion Roulette,EmptyTest", "app,ATest,/p/ATest.java,/p/A.java,,,2,3,0"),
+            Files.readAllLines(written.toPath()) );
+        assertEquals( 3, SmellTable.read(written).rowTotalOn(table, 0) );
+    }
+}
@@ -0,0 +1,80 @@
+package es.upm.alumnos.profundizacion;
+
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class StratifiedSampleTest
+{
+    private static List<Integer> population ( int size )
+    {
+        final List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            result.add(i);
+        return result;
+    }
+
+    private static StratifiedSample<Integer> sample ( List<Integer> population, double rate, long seed )
+    {
+        return new StratifiedSample<>(population, i -> "s" + (i % 3), Comparator.naturalOrder(), rate, seed);
+    }
+
+    @Test
+    public void testSameSeedSelectsSameElements()
+    {
+        final List<Integer> population = population(300);
+        final List<Integer> shuffled = new ArrayList<>(population);
+        Collections.reverse(shuffled);
+
+        assertEquals( sample(population, 0.1, 42).selected(), sample(shuffled, 0.1, 42).selected() );
+        assertNotEquals( sample(population, 0.1, 42).selected(), sample(population, 0.1, 7).selected() );
+    }
+
+    @Test
+    public void testStrataSplitTheSample()
+    {
+        final StratifiedSample<Integer> sample = sample(population(300), 0.1, 1);
+
+        assertEquals( 3, sample.strataCount() );
+        assertEquals( 300, sample.populationSize() );
+        assertEquals( 30, sample.selected().size() );
+        assertEquals( 10, sample.selected().stream().filter(i -> i % 3 == 0).count() );
+    }
+
+    @Test
+    public void testSmallStrataAreMerged()
+    {
+        final StratifiedSample<Integer> sample = new StratifiedSample<>(population(3000), i -> String.format("p%04d", i / 3),
+            Comparator.naturalOrder(), 0.01, 1);
+
+        assertEquals( 30, sample.selected().size() );
+        assertEquals( 15, sample.strataCount() );
+        assertEquals( 2, sample(population(300), 0.001, 1).selected().size() );
+    }
+
+    @Test
+    public void testFullSampleEstimateIsExact()
+    {
+        final StratifiedSample<Integer> sample = sample(population(30), 1, 1);
+        final StratifiedSample.Estimate[] estimates = sample.estimate(i -> new long[] { i, 1 }, 2);
+
+        assertEquals( 435, estimates[0].value(), 1e-9 );
+        assertEquals( 435, estimates[0].upper(), 1e-9 );
+        assertEquals( 30, estimates[1].value(), 1e-9 );
+    }
+
+    @Test
+    public void testEstimateIntervalContainsTotal()
+    {
+        final StratifiedSample<Integer> sample = sample(population(3000), 0.2, 3);
+        final StratifiedSample.Estimate estimate = sample.estimate(i -> new long[] { i % 5 }, 1)[0];
+
+        assertTrue( estimate.lower() <= 6000 && 6000 <= estimate.upper() );
+        assertTrue( estimate.upper() - estimate.lower() > 0 );
+    }
+}